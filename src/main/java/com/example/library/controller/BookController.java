@@ -4,6 +4,7 @@ import com.example.library.entity.Book;
 import com.example.library.service.BookService;
 import com.example.library.service.AuthorService;
 import com.example.library.service.GenreService;
+import com.example.library.service.RecommendationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Controller;
@@ -20,6 +21,7 @@ public class BookController {
     private final BookService bookService;
     private final AuthorService authorService;
     private final GenreService genreService;
+    private final RecommendationService recommendationService;
 
     @GetMapping
     public String listBooks(
@@ -130,6 +132,7 @@ public class BookController {
         try {
             Book book = bookService.getBookById(id);
             model.addAttribute("book", book);
+            model.addAttribute("similarBooks", recommendationService.getSimilarBooks(id));
         } catch (Exception e) {
             log.error("Ошибка при просмотре книги с id={}", id, e);
             model.addAttribute("error", "Книга не найдена: " + e.getMessage());
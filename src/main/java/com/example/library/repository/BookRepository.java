@@ -1,7 +1,9 @@
 package com.example.library.repository;
 
 import com.example.library.entity.Book;
+import java.util.Collection;
 import java.util.List;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -14,6 +16,9 @@ public interface BookRepository extends JpaRepository<Book, Long> {
 
     List<Book> findByIsbnContainingIgnoreCase(String isbn);
 
+    @EntityGraph(attributePaths = {"author", "genre"})
+    List<Book> findByIdIn(Collection<Long> ids);
+
     @Query("SELECT b FROM Book b WHERE LOWER(b.author.firstName) LIKE LOWER(CONCAT('%', :name, '%')) "
             + "OR LOWER(b.author.lastName) LIKE LOWER(CONCAT('%', :name, '%'))")
     List<Book> findByAuthorNameContainingIgnoreCase(@Param("name") String name);
@@ -1,6 +1,7 @@
 package com.example.library.service;
 
 import com.example.library.entity.Author;
+import com.example.library.entity.Book;
 import com.example.library.repository.AuthorRepository;
 import java.util.List;
 import lombok.RequiredArgsConstructor;
@@ -13,6 +14,7 @@ import org.springframework.transaction.annotation.Transactional;
 public class AuthorService {
 
     private final AuthorRepository authorRepository;
+    private final RecommendationService recommendationService;
 
     public List<Author> getAllAuthors() {
         return authorRepository.findAll();
@@ -28,7 +30,11 @@ public class AuthorService {
     }
 
     public void deleteAuthor(Long id) {
-        authorRepository.deleteById(id);
+        authorRepository.findById(id).ifPresent(author -> {
+            List<Long> bookIds = author.getBooks().stream().map(Book::getId).toList();
+            authorRepository.delete(author);
+            recommendationService.onBooksDeleted(bookIds);
+        });
     }
 
     public List<Author> searchAuthors(String keyword) {
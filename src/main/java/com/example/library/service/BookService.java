@@ -13,6 +13,7 @@ import org.springframework.transaction.annotation.Transactional;
 public class BookService {
 
     private final BookRepository bookRepository;
+    private final RecommendationService recommendationService;
 
     public List<Book> getAllBooks() {
         return bookRepository.findAll();
@@ -24,11 +25,14 @@ public class BookService {
     }
 
     public Book saveBook(Book book) {
-        return bookRepository.save(book);
+        Book saved = bookRepository.save(book);
+        recommendationService.onBookSaved(saved);
+        return saved;
     }
 
     public void deleteBook(Long id) {
         bookRepository.deleteById(id);
+        recommendationService.onBookDeleted(id);
     }
 
     public List<Book> searchBooks(String keyword) {
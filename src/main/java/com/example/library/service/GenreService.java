@@ -1,5 +1,6 @@
 package com.example.library.service;
 
+import com.example.library.entity.Book;
 import com.example.library.entity.Genre;
 import com.example.library.repository.GenreRepository;
 import java.util.List;
@@ -13,6 +14,7 @@ import org.springframework.transaction.annotation.Transactional;
 public class GenreService {
 
     private final GenreRepository genreRepository;
+    private final RecommendationService recommendationService;
 
     public List<Genre> getAllGenres() {
         return genreRepository.findAll();
@@ -28,7 +30,11 @@ public class GenreService {
     }
 
     public void deleteGenre(Long id) {
-        genreRepository.deleteById(id);
+        genreRepository.findById(id).ifPresent(genre -> {
+            List<Long> bookIds = genre.getBooks().stream().map(Book::getId).toList();
+            genreRepository.delete(genre);
+            recommendationService.onBooksDeleted(bookIds);
+        });
     }
 
     public List<Genre> searchGenres(String keyword) {
@@ -0,0 +1,321 @@
+package com.example.library.service;
+
+import com.example.library.entity.Book;
+import com.example.library.repository.BookRepository;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Граф похожих книг: для каждой книги заранее хранится не более {@link #MAX_NEIGHBOURS}
+ * соседей, отсортированных по убыванию сходства. Соседом может быть только книга
+ * того же автора или жанра, близость года публикации уточняет порядок, поэтому
+ * кандидаты берутся только из индексов книг по автору и по жанру.
+ * Граф строится при старте и обновляется точечно при изменении каталога,
+ * поэтому страница книги получает рекомендации без пересчёта.
+ * Изменения применяются только после фиксации транзакции, чтобы откат
+ * не оставлял граф рассогласованным с базой.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RecommendationService {
+
+    private static final int MAX_NEIGHBOURS = 6;
+    private static final int SAME_AUTHOR_WEIGHT = 100;
+    private static final int SAME_GENRE_WEIGHT = 50;
+    private static final int ERA_SPAN_YEARS = 25;
+    private static final long[] NO_BOOKS = new long[0];
+
+    private final BookRepository bookRepository;
+
+    private final Map<Long, Features> features = new HashMap<>();
+    private final Map<Long, long[]> booksByAuthor = new HashMap<>();
+    private final Map<Long, long[]> booksByGenre = new HashMap<>();
+    private final Map<Long, Neighbours> neighbours = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public synchronized void rebuild() {
+        features.clear();
+        Map<Long, List<Long>> authorBuckets = new HashMap<>();
+        Map<Long, List<Long>> genreBuckets = new HashMap<>();
+        for (Book book : bookRepository.findAll()) {
+            Features bookFeatures = Features.of(book);
+            features.put(book.getId(), bookFeatures);
+            authorBuckets.computeIfAbsent(bookFeatures.authorId(), key -> new ArrayList<>()).add(book.getId());
+            genreBuckets.computeIfAbsent(bookFeatures.genreId(), key -> new ArrayList<>()).add(book.getId());
+        }
+        fillBuckets(booksByAuthor, authorBuckets);
+        fillBuckets(booksByGenre, genreBuckets);
+        Map<Long, Neighbours> computed = new HashMap<>();
+        for (Long id : features.keySet()) {
+            computed.put(id, computeNeighbours(id));
+        }
+        neighbours.keySet().retainAll(computed.keySet());
+        neighbours.putAll(computed);
+        log.info("Граф рекомендаций построен для {} книг", features.size());
+    }
+
+    public void onBookSaved(Book book) {
+        long id = book.getId();
+        Features updated = Features.of(book);
+        afterCommit(() -> applySaved(id, updated));
+    }
+
+    public void onBookDeleted(Long id) {
+        onBooksDeleted(List.of(id));
+    }
+
+    public void onBooksDeleted(Collection<Long> ids) {
+        List<Long> removed = List.copyOf(ids);
+        afterCommit(() -> applyDeleted(removed));
+    }
+
+    public List<Book> getSimilarBooks(Long id) {
+        Neighbours found = neighbours.get(id);
+        if (found == null || found.ids.length == 0) {
+            return List.of();
+        }
+        List<Long> ids = new ArrayList<>(found.ids.length);
+        for (long neighbourId : found.ids) {
+            ids.add(neighbourId);
+        }
+        Map<Long, Book> books = new HashMap<>();
+        for (Book book : bookRepository.findByIdIn(ids)) {
+            books.put(book.getId(), book);
+        }
+        List<Book> result = new ArrayList<>(ids.size());
+        for (Long neighbourId : ids) {
+            Book book = books.get(neighbourId);
+            if (book != null) {
+                result.add(book);
+            }
+        }
+        return result;
+    }
+
+    private synchronized void applySaved(long id, Features updated) {
+        Features previous = features.put(id, updated);
+        if (updated.equals(previous)) {
+            return;
+        }
+        Set<Long> affected = new HashSet<>();
+        if (previous != null) {
+            collect(affected, booksByAuthor.get(previous.authorId()));
+            collect(affected, booksByGenre.get(previous.genreId()));
+            unindex(id, previous);
+        }
+        index(id, updated);
+        collect(affected, booksByAuthor.get(updated.authorId()));
+        collect(affected, booksByGenre.get(updated.genreId()));
+        affected.remove(id);
+
+        neighbours.put(id, computeNeighbours(id));
+        for (Long otherId : affected) {
+            Neighbours current = neighbours.get(otherId);
+            int score = score(features.get(otherId), updated);
+            int index = current.indexOf(id);
+            if (index >= 0 && score < current.scores[index]) {
+                neighbours.put(otherId, computeNeighbours(otherId));
+            } else if (score > 0 && current.accepts(id, score)) {
+                neighbours.put(otherId, current.with(id, score));
+            }
+        }
+    }
+
+    private synchronized void applyDeleted(List<Long> ids) {
+        Set<Long> affected = new HashSet<>();
+        for (Long id : ids) {
+            Features removed = features.remove(id);
+            neighbours.remove(id);
+            if (removed != null) {
+                unindex(id, removed);
+                collect(affected, booksByAuthor.get(removed.authorId()));
+                collect(affected, booksByGenre.get(removed.genreId()));
+            }
+        }
+        affected.removeAll(ids);
+        for (Long otherId : affected) {
+            Neighbours current = neighbours.get(otherId);
+            for (Long id : ids) {
+                if (current.indexOf(id) >= 0) {
+                    neighbours.put(otherId, computeNeighbours(otherId));
+                    break;
+                }
+            }
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private Neighbours computeNeighbours(long id) {
+        Features own = features.get(id);
+        long[] ids = new long[MAX_NEIGHBOURS];
+        int[] scores = new int[MAX_NEIGHBOURS];
+        int size = 0;
+        for (long otherId : booksByAuthor.getOrDefault(own.authorId(), NO_BOOKS)) {
+            if (otherId != id) {
+                size = insert(ids, scores, size, otherId, score(own, features.get(otherId)));
+            }
+        }
+        for (long otherId : booksByGenre.getOrDefault(own.genreId(), NO_BOOKS)) {
+            Features other = features.get(otherId);
+            if (otherId != id && other.authorId() != own.authorId()) {
+                size = insert(ids, scores, size, otherId, score(own, other));
+            }
+        }
+        return new Neighbours(Arrays.copyOf(ids, size), Arrays.copyOf(scores, size));
+    }
+
+    private void index(long id, Features bookFeatures) {
+        addToBucket(booksByAuthor, bookFeatures.authorId(), id);
+        addToBucket(booksByGenre, bookFeatures.genreId(), id);
+    }
+
+    private void unindex(long id, Features bookFeatures) {
+        removeFromBucket(booksByAuthor, bookFeatures.authorId(), id);
+        removeFromBucket(booksByGenre, bookFeatures.genreId(), id);
+    }
+
+    private static void fillBuckets(Map<Long, long[]> buckets, Map<Long, List<Long>> grouped) {
+        buckets.clear();
+        grouped.forEach((key, ids) -> buckets.put(key, ids.stream().mapToLong(Long::longValue).toArray()));
+    }
+
+    private static void addToBucket(Map<Long, long[]> buckets, long key, long id) {
+        long[] bucket = buckets.getOrDefault(key, NO_BOOKS);
+        long[] grown = Arrays.copyOf(bucket, bucket.length + 1);
+        grown[bucket.length] = id;
+        buckets.put(key, grown);
+    }
+
+    private static void removeFromBucket(Map<Long, long[]> buckets, long key, long id) {
+        long[] bucket = buckets.get(key);
+        if (bucket == null) {
+            return;
+        }
+        for (int i = 0; i < bucket.length; i++) {
+            if (bucket[i] == id) {
+                if (bucket.length == 1) {
+                    buckets.remove(key);
+                    return;
+                }
+                long[] shrunk = new long[bucket.length - 1];
+                System.arraycopy(bucket, 0, shrunk, 0, i);
+                System.arraycopy(bucket, i + 1, shrunk, i, bucket.length - i - 1);
+                buckets.put(key, shrunk);
+                return;
+            }
+        }
+    }
+
+    private static void collect(Set<Long> target, long[] ids) {
+        if (ids != null) {
+            for (long id : ids) {
+                target.add(id);
+            }
+        }
+    }
+
+    private static int score(Features a, Features b) {
+        int score = 0;
+        if (a.authorId() == b.authorId()) {
+            score += SAME_AUTHOR_WEIGHT;
+        }
+        if (a.genreId() == b.genreId()) {
+            score += SAME_GENRE_WEIGHT;
+        }
+        if (score == 0) {
+            return 0;
+        }
+        if (a.year() != 0 && b.year() != 0) {
+            score += Math.max(0, ERA_SPAN_YEARS - Math.abs(a.year() - b.year()));
+        }
+        return score;
+    }
+
+    private static boolean ranksAbove(int score, long id, int otherScore, long otherId) {
+        return score > otherScore || (score == otherScore && id < otherId);
+    }
+
+    private static int insert(long[] ids, int[] scores, int size, long id, int score) {
+        int position = size;
+        while (position > 0 && ranksAbove(score, id, scores[position - 1], ids[position - 1])) {
+            position--;
+        }
+        if (position >= ids.length) {
+            return size;
+        }
+        int last = Math.min(size, ids.length - 1);
+        System.arraycopy(ids, position, ids, position + 1, last - position);
+        System.arraycopy(scores, position, scores, position + 1, last - position);
+        ids[position] = id;
+        scores[position] = score;
+        return last + 1;
+    }
+
+    private record Features(long authorId, long genreId, int year) {
+
+        static Features of(Book book) {
+            Integer year = book.getPublicationYear();
+            return new Features(book.getAuthor().getId(), book.getGenre().getId(), year != null ? year : 0);
+        }
+    }
+
+    private record Neighbours(long[] ids, int[] scores) {
+
+        int indexOf(long id) {
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] == id) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        boolean accepts(long id, int score) {
+            int last = ids.length - 1;
+            return ids.length < MAX_NEIGHBOURS || ranksAbove(score, id, scores[last], ids[last]);
+        }
+
+        Neighbours with(long id, int score) {
+            long[] newIds = Arrays.copyOf(ids, MAX_NEIGHBOURS);
+            int[] newScores = Arrays.copyOf(scores, MAX_NEIGHBOURS);
+            int size = ids.length;
+            int index = indexOf(id);
+            if (index >= 0) {
+                System.arraycopy(newIds, index + 1, newIds, index, size - index - 1);
+                System.arraycopy(newScores, index + 1, newScores, index, size - index - 1);
+                size--;
+            }
+            size = insert(newIds, newScores, size, id, score);
+            return new Neighbours(Arrays.copyOf(newIds, size), Arrays.copyOf(newScores, size));
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.library.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.example.library.entity.Author;
+import com.example.library.entity.Book;
+import com.example.library.entity.Genre;
+import com.example.library.repository.BookRepository;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+class RecommendationServiceTest {
+
+    private final Map<Long, Book> catalogue = new LinkedHashMap<>();
+    private final List<Author> authors = new ArrayList<>();
+    private final List<Genre> genres = new ArrayList<>();
+    private final Random random = new Random(42);
+
+    private RecommendationService service;
+    private long nextId = 1;
+
+    @BeforeEach
+    void setUp() {
+        for (long i = 1; i <= 5; i++) {
+            Author author = new Author();
+            author.setId(i);
+            authors.add(author);
+        }
+        for (long i = 1; i <= 4; i++) {
+            Genre genre = new Genre();
+            genre.setId(i);
+            genres.add(genre);
+        }
+        service = newService();
+        service.rebuild();
+    }
+
+    @Test
+    void incrementalUpdatesMatchFullRebuild() {
+        for (int i = 0; i < 60; i++) {
+            save(book(randomAuthor(), randomGenre(), randomYear()));
+            assertMatchesRebuild();
+        }
+
+        List<Long> ids = new ArrayList<>(catalogue.keySet());
+        for (int i = 0; i < 40; i++) {
+            Book book = catalogue.get(ids.get(random.nextInt(ids.size())));
+            switch (i % 4) {
+                case 0 -> book.setAuthor(randomAuthor());
+                case 1 -> book.setGenre(randomGenre());
+                case 2 -> book.setPublicationYear(randomYear());
+                default -> { }
+            }
+            save(book);
+            assertMatchesRebuild();
+        }
+
+        for (int i = 0; i < 10; i++) {
+            Long id = ids.remove(random.nextInt(ids.size()));
+            catalogue.remove(id);
+            service.onBookDeleted(id);
+            assertMatchesRebuild();
+        }
+
+        Author removedAuthor = authors.get(0);
+        List<Long> authorBooks = catalogue.values().stream()
+                .filter(book -> book.getAuthor() == removedAuthor)
+                .map(Book::getId)
+                .toList();
+        authorBooks.forEach(catalogue::remove);
+        service.onBooksDeleted(authorBooks);
+        assertMatchesRebuild();
+
+        for (int i = 0; i < 10; i++) {
+            save(book(randomAuthor(), randomGenre(), randomYear()));
+            assertMatchesRebuild();
+        }
+    }
+
+    @Test
+    void ranksSharedAuthorAndGenreAboveSingleMatch() {
+        Book base = save(book(authors.get(0), genres.get(0), 1900));
+        Book sameGenre = save(book(authors.get(1), genres.get(0), 1900));
+        Book sameAuthor = save(book(authors.get(0), genres.get(1), 1950));
+        Book both = save(book(authors.get(0), genres.get(0), 1990));
+        save(book(authors.get(2), genres.get(2), 1900));
+
+        assertThat(similarIds(service, base.getId()))
+                .containsExactly(both.getId(), sameAuthor.getId(), sameGenre.getId());
+    }
+
+    @Test
+    void appliesChangesOnlyAfterCommit() {
+        Book base = save(book(authors.get(0), genres.get(0), 1900));
+        Book other = book(authors.get(0), genres.get(0), 1901);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            catalogue.put(other.getId(), other);
+            service.onBookSaved(other);
+            assertThat(similarIds(service, base.getId())).isEmpty();
+
+            TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertThat(similarIds(service, base.getId())).containsExactly(other.getId());
+    }
+
+    @Test
+    void rolledBackChangesAreDiscarded() {
+        Book base = save(book(authors.get(0), genres.get(0), 1900));
+        Book other = book(authors.get(0), genres.get(0), 1901);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.onBookSaved(other);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertThat(similarIds(service, base.getId())).isEmpty();
+    }
+
+    private void assertMatchesRebuild() {
+        RecommendationService fresh = newService();
+        fresh.rebuild();
+        for (Long id : catalogue.keySet()) {
+            assertThat(similarIds(service, id))
+                    .as("соседи книги %d", id)
+                    .isEqualTo(similarIds(fresh, id));
+        }
+    }
+
+    private RecommendationService newService() {
+        BookRepository repository = mock(BookRepository.class);
+        when(repository.findAll()).thenAnswer(invocation -> new ArrayList<>(catalogue.values()));
+        when(repository.findByIdIn(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream().map(catalogue::get).filter(book -> book != null).toList();
+        });
+        return new RecommendationService(repository);
+    }
+
+    private static List<Long> similarIds(RecommendationService service, Long id) {
+        return service.getSimilarBooks(id).stream().map(Book::getId).toList();
+    }
+
+    private Book save(Book book) {
+        catalogue.put(book.getId(), book);
+        service.onBookSaved(book);
+        return book;
+    }
+
+    private Book book(Author author, Genre genre, int year) {
+        Book book = new Book();
+        book.setId(nextId++);
+        book.setTitle("Книга " + book.getId());
+        book.setAuthor(author);
+        book.setGenre(genre);
+        book.setPublicationYear(year);
+        return book;
+    }
+
+    private Author randomAuthor() {
+        return authors.get(random.nextInt(authors.size()));
+    }
+
+    private Genre randomGenre() {
+        return genres.get(random.nextInt(genres.size()));
+    }
+
+    private int randomYear() {
+        return 1850 + random.nextInt(170);
+    }
+}